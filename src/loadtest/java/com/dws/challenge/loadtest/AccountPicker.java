@@ -0,0 +1,64 @@
+package com.dws.challenge.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses which pre-created account a request targets. Supports {@code uniform} and
+ * {@code zipf:<exponent>}, where account 0 is the most popular one.
+ */
+abstract class AccountPicker {
+
+    abstract int pick();
+
+    static AccountPicker parse(String spec, int accounts) {
+        if (spec.equals("uniform")) {
+            return new Uniform(accounts);
+        }
+        if (spec.startsWith("zipf:")) {
+            double exponent = Double.parseDouble(spec.substring("zipf:".length()));
+            if (exponent <= 0) {
+                throw new IllegalArgumentException("Zipf exponent must be a positive number.");
+            }
+            return new Zipf(accounts, exponent);
+        }
+        throw new IllegalArgumentException("Unknown distribution " + spec + ", expected uniform or zipf:<exponent>.");
+    }
+
+    private static final class Uniform extends AccountPicker {
+
+        private final int accounts;
+
+        private Uniform(int accounts) {
+            this.accounts = accounts;
+        }
+
+        @Override
+        int pick() {
+            return ThreadLocalRandom.current().nextInt(accounts);
+        }
+    }
+
+    private static final class Zipf extends AccountPicker {
+
+        private final double[] cumulative;
+
+        private Zipf(int accounts, double exponent) {
+            cumulative = new double[accounts];
+            double sum = 0;
+            for (int rank = 0; rank < accounts; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < accounts; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        @Override
+        int pick() {
+            int position = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+            return Math.min(position < 0 ? -position - 1 : position, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.dws.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the accounts API of an already running application and writes latency percentiles and
+ * throughput per operation as JSON.
+ * <p>
+ * In open mode requests are sent on a fixed schedule derived from {@code --rate}, whether or not
+ * earlier requests have completed, and response times are measured from the scheduled send time.
+ * A slow server therefore shows up in the percentiles instead of silently lowering the offered
+ * load (coordinated omission). {@code --max-in-flight} caps the offered load: once that many
+ * requests are outstanding, sends wait for one to complete. No sends are issued after the end of
+ * {@code --duration}. Scheduled requests that were never sent are reported as {@code unsent} and
+ * are missing from the percentiles, so a non-zero count means latency is understated. In closed
+ * mode {@code --concurrency} workers each send their next request as soon as the previous one
+ * completes and {@code --rate} is ignored.
+ */
+public final class LoadGenerator {
+
+    private static final String INITIAL_BALANCE = "1000000000";
+    private static final int SETUP_CONCURRENCY = 64;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final LoadTestOptions options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AccountPicker accountPicker;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicLong createdAccounts = new AtomicLong();
+
+    private long warmupEndNanos;
+    private long endNanos;
+    private long unsent;
+
+    private LoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.accountPicker = AccountPicker.parse(options.getDistribution(), options.getAccounts());
+
+        Map<Operation, Integer> weights = options.getMixWeights();
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(LoadTestOptions.parse(args)).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        createAccounts();
+
+        long startNanos = System.nanoTime();
+        warmupEndNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        endNanos = warmupEndNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        Instant startedAt = Instant.now();
+
+        long unfinished;
+        if (options.getMode() == LoadTestOptions.Mode.OPEN) {
+            unfinished = runOpenLoop(startNanos);
+        } else {
+            unfinished = runClosedLoop();
+        }
+        double drainSeconds = Math.max(0, System.nanoTime() - endNanos) / 1e9;
+
+        writeReport(startedAt, drainSeconds, unfinished);
+    }
+
+    private void createAccounts() throws InterruptedException {
+        System.out.printf("Creating %d accounts for run %s%n", options.getAccounts(), runId);
+        Semaphore inFlight = new Semaphore(SETUP_CONCURRENCY);
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < options.getAccounts(); i++) {
+            String accountId = accountId(i);
+            inFlight.acquire();
+            client.sendAsync(createRequest(accountId), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 201) {
+                            synchronized (failures) {
+                                failures.add(accountId + ": " + (error != null ? error : response.statusCode()));
+                            }
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(SETUP_CONCURRENCY);
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Could not create " + failures.size() + " accounts, first was "
+                    + failures.get(0));
+        }
+    }
+
+    /**
+     * @return the number of requests still outstanding when the drain timeout expired
+     */
+    private long runOpenLoop(long startNanos) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        double nanosPerRequest = 1e9 / options.getRate();
+        for (long i = 0; ; i++) {
+            long intendedStartNanos = startNanos + (long) (i * nanosPerRequest);
+            if (intendedStartNanos >= endNanos) {
+                break;
+            }
+            long waitNanos;
+            while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            // Waiting here delays later sends, but their response times still count from the schedule
+            if (!inFlight.tryAcquire(endNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                unsent = countMeasuredFrom(i, startNanos, nanosPerRequest);
+                break;
+            }
+
+            Operation operation = nextOperation();
+            HttpRequest request = request(operation);
+            long sentNanos = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        record(operation, intendedStartNanos, sentNanos, response, error);
+                        inFlight.release();
+                    });
+        }
+        if (inFlight.tryAcquire(options.getMaxInFlight(), DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            return 0;
+        }
+        return options.getMaxInFlight() - inFlight.availablePermits();
+    }
+
+    /**
+     * @return how many sends from index {@code first} onwards fall inside the measured window
+     */
+    private long countMeasuredFrom(long first, long startNanos, double nanosPerRequest) {
+        long count = 0;
+        for (long i = first; ; i++) {
+            long intendedStartNanos = startNanos + (long) (i * nanosPerRequest);
+            if (intendedStartNanos >= endNanos) {
+                return count;
+            }
+            if (intendedStartNanos >= warmupEndNanos) {
+                count++;
+            }
+        }
+    }
+
+    private long runClosedLoop() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency());
+        AtomicReference<Throwable> workerFailure = new AtomicReference<>();
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            workers.execute(() -> {
+                try {
+                    long sentNanos;
+                    while ((sentNanos = System.nanoTime()) < endNanos && workerFailure.get() == null) {
+                        Operation operation = nextOperation();
+                        HttpResponse<Void> response = null;
+                        Throwable error = null;
+                        try {
+                            response = client.send(request(operation), HttpResponse.BodyHandlers.discarding());
+                        } catch (IOException e) {
+                            error = e;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        record(operation, sentNanos, sentNanos, response, error);
+                    }
+                } catch (RuntimeException | Error e) {
+                    // Abort the whole run rather than report silently reduced load
+                    if (workerFailure.compareAndSet(null, e)) {
+                        workers.shutdownNow();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        long timeoutNanos = endNanos - System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        boolean terminated = workers.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS);
+        if (workerFailure.get() != null) {
+            throw new IllegalStateException("Closed-loop worker failed, aborting the run", workerFailure.get());
+        }
+        if (terminated) {
+            return 0;
+        }
+        workers.shutdownNow();
+        return options.getConcurrency();
+    }
+
+    private void record(Operation operation, long intendedStartNanos, long sentNanos,
+                        HttpResponse<Void> response, Throwable error) {
+        if (intendedStartNanos < warmupEndNanos) {
+            return;
+        }
+        long completedNanos = System.nanoTime();
+        if (error != null) {
+            stats.get(operation).recordFailure(intendedStartNanos, sentNanos, completedNanos);
+        } else {
+            stats.get(operation).recordResponse(intendedStartNanos, sentNanos, completedNanos, response.statusCode());
+        }
+    }
+
+    private Operation nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Weights do not cover " + value);
+    }
+
+    private HttpRequest request(Operation operation) {
+        switch (operation) {
+            case CREATE:
+                return createRequest(runId + "-new-" + createdAccounts.incrementAndGet());
+            case GET:
+                return HttpRequest.newBuilder(uri("/v1/accounts/" + accountId(accountPicker.pick())))
+                        .timeout(REQUEST_TIMEOUT)
+                        .GET()
+                        .build();
+            case TRANSFER:
+                int from = accountPicker.pick();
+                int to = accountPicker.pick();
+                if (to == from) {
+                    to = (to + 1) % options.getAccounts();
+                }
+                return post("/v1/accounts/transfer", "{\"accountFromId\":\"" + accountId(from)
+                        + "\",\"accountToId\":\"" + accountId(to) + "\",\"amount\":1}");
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private HttpRequest createRequest(String accountId) {
+        return post("/v1/accounts", "{\"accountId\":\"" + accountId + "\",\"balance\":" + INITIAL_BALANCE + "}");
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.getBaseUrl() + path);
+    }
+
+    private String accountId(int index) {
+        return runId + "-" + index;
+    }
+
+    /**
+     * Throughput counts the requests scheduled (open mode) or started (closed mode) inside the
+     * measured window, divided by the window length ({@code --duration}). Time spent waiting for
+     * outstanding requests afterwards is reported separately as {@code drainSeconds}.
+     */
+    private void writeReport(Instant startedAt, double drainSeconds, long unfinished) throws IOException {
+        double measuredSeconds = options.getDurationSeconds();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("startedAt", startedAt.toString());
+
+        ObjectNode config = report.putObject("options");
+        config.put("baseUrl", options.getBaseUrl());
+        config.put("mode", options.getMode().name().toLowerCase(Locale.ROOT));
+        config.put("rate", options.getRate());
+        config.put("concurrency", options.getConcurrency());
+        config.put("maxInFlight", options.getMaxInFlight());
+        config.put("warmupSeconds", options.getWarmupSeconds());
+        config.put("durationSeconds", options.getDurationSeconds());
+        config.put("accounts", options.getAccounts());
+        config.put("distribution", options.getDistribution());
+        config.put("mix", options.getMix());
+
+        long requests = 0;
+        long failures = 0;
+        ObjectNode perOperation = report.putObject("operations");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            entry.getValue().writeTo(perOperation.putObject(entry.getKey().key()), measuredSeconds);
+            requests += entry.getValue().getRequests();
+            failures += entry.getValue().getFailures();
+        }
+
+        ObjectNode totals = report.putObject("totals");
+        totals.put("measuredSeconds", measuredSeconds);
+        totals.put("drainSeconds", drainSeconds);
+        totals.put("requests", requests);
+        totals.put("failures", failures);
+        totals.put("unfinished", unfinished);
+        totals.put("unsent", unsent);
+        totals.put("throughput", requests / measuredSeconds);
+
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        Path output = Paths.get(options.getOutput()).toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+        System.out.println(json);
+        System.out.println("Report written to " + output);
+    }
+}
@@ -0,0 +1,152 @@
+package com.dws.challenge.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Anything not given keeps its default.
+ */
+final class LoadTestOptions {
+
+    enum Mode {
+        OPEN,
+        CLOSED
+    }
+
+    private String baseUrl = "http://localhost:18080";
+    private Mode mode = Mode.OPEN;
+    private double rate = 500;
+    private int concurrency = 64;
+    private int maxInFlight = 1_000;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int accounts = 10_000;
+    private String distribution = "uniform";
+    private String mix = "get=70,transfer=25,create=5";
+    private String output = "build/loadtest/report.json";
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "base-url":
+                    options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "mode":
+                    options.mode = Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "concurrency":
+                    options.concurrency = Integer.parseInt(value);
+                    break;
+                case "max-in-flight":
+                    options.maxInFlight = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "accounts":
+                    options.accounts = Integer.parseInt(value);
+                    break;
+                case "distribution":
+                    options.distribution = value;
+                    break;
+                case "mix":
+                    options.mix = value;
+                    break;
+                case "output":
+                    options.output = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        // Written so NaN fails too; an infinite or NaN rate would never let the open loop finish
+        if (!(options.rate > 0) || Double.isInfinite(options.rate) || options.concurrency <= 0
+                || options.maxInFlight <= 0 || options.durationSeconds <= 0 || options.warmupSeconds < 0
+                || options.accounts < 2) {
+            throw new IllegalArgumentException("Rate must be finite and positive, as must concurrency, "
+                    + "max-in-flight and duration. Warmup must not be negative and at least two accounts "
+                    + "are needed for transfers.");
+        }
+        return options;
+    }
+
+    /**
+     * Parses a mix such as {@code get=70,transfer=25,create=5} into relative weights.
+     */
+    Map<Operation, Integer> getMixWeights() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in mix but got " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative.");
+            }
+            weights.put(Operation.fromKey(entry[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight.");
+        }
+        return weights;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    int getAccounts() {
+        return accounts;
+    }
+
+    String getDistribution() {
+        return distribution;
+    }
+
+    String getMix() {
+        return mix;
+    }
+
+    String getOutput() {
+        return output;
+    }
+}
@@ -0,0 +1,23 @@
+package com.dws.challenge.loadtest;
+
+import java.util.Locale;
+
+enum Operation {
+
+    CREATE,
+    GET,
+    TRANSFER;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key().equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key + ", expected create, get or transfer.");
+    }
+}
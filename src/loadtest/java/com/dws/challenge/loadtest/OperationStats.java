@@ -0,0 +1,82 @@
+package com.dws.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one operation. Response time is measured from when the request
+ * was scheduled to be sent, so time spent queued behind a slow server is included; service time is
+ * measured from when it was actually sent.
+ */
+final class OperationStats {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99_9", "p99_99"};
+
+    private final Histogram responseTime = new ConcurrentHistogram(3);
+    private final Histogram serviceTime = new ConcurrentHistogram(3);
+    private final LongAdder informational = new LongAdder();
+    private final LongAdder successful = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    void recordResponse(long intendedStartNanos, long sentNanos, long completedNanos, int status) {
+        recordTimes(intendedStartNanos, sentNanos, completedNanos);
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else if (status >= 200) {
+            successful.increment();
+        } else {
+            informational.increment();
+        }
+    }
+
+    void recordFailure(long intendedStartNanos, long sentNanos, long completedNanos) {
+        recordTimes(intendedStartNanos, sentNanos, completedNanos);
+        failures.increment();
+    }
+
+    long getRequests() {
+        return responseTime.getTotalCount();
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    void writeTo(ObjectNode node, double measuredSeconds) {
+        node.put("requests", getRequests());
+        node.put("throughput", getRequests() / measuredSeconds);
+        ObjectNode status = node.putObject("status");
+        status.put("1xx", informational.sum());
+        status.put("2xx_3xx", successful.sum());
+        status.put("4xx", clientErrors.sum());
+        status.put("5xx", serverErrors.sum());
+        node.put("failures", failures.sum());
+        writeHistogram(node.putObject("responseTimeMicros"), responseTime);
+        writeHistogram(node.putObject("serviceTimeMicros"), serviceTime);
+    }
+
+    private void recordTimes(long intendedStartNanos, long sentNanos, long completedNanos) {
+        responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedStartNanos));
+        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+    }
+
+    private static void writeHistogram(ObjectNode node, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        node.put("mean", histogram.getMean());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            node.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+        }
+        node.put("max", histogram.getMaxValue());
+    }
+}
@@ -3,6 +3,13 @@ package com.dws.challenge.repository;
 import com.dws.challenge.domain.Account;
 import com.dws.challenge.exception.DuplicateAccountIdException;
 
+/**
+ * Accounts are mutable and handed out by reference. Callers that change an {@link Account}
+ * returned by {@link #getAccount(String)} must look it up and modify it while holding the monitor
+ * of {@code accountId.intern()}, as {@code AccountsService} does for transfers. Implementations
+ * that move accounts between storage tiers hold the same monitor while doing so, so a change made
+ * under it is never lost.
+ */
 public interface AccountsRepository {
 
     void createAccount(Account account) throws DuplicateAccountIdException;
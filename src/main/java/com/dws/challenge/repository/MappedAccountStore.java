@@ -0,0 +1,347 @@
+package com.dws.challenge.repository;
+
+import com.dws.challenge.domain.Account;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap store for dormant accounts.
+ * <p>
+ * Every account occupies one fixed-size record in a memory-mapped file and is located through an
+ * open-addressing hash index kept in a direct buffer, so cold accounts cost no Java heap. Freed
+ * records are chained into a free list stored in the records themselves.
+ * <p>
+ * The file is scratch space for the lifetime of the store and is deleted on {@link #close()}.
+ * <p>
+ * Lookups share a read lock, so misses and duplicate checks from many threads do not queue behind
+ * each other; only puts and actual removals take the write lock. An empty store needs no lock.
+ */
+final class MappedAccountStore implements Closeable {
+
+    // Record layout
+    static final int RECORD_SIZE = 128;
+    private static final int STATE_OFFSET = 0;
+    private static final int NEXT_FREE_OFFSET = 1;
+    private static final int ID_LENGTH_OFFSET = 1;
+    private static final int ID_OFFSET = 2;
+    static final int MAX_ID_BYTES = 80;
+    private static final int SCALE_OFFSET = ID_OFFSET + MAX_ID_BYTES;
+    private static final int UNSCALED_LENGTH_OFFSET = SCALE_OFFSET + Integer.BYTES;
+    private static final int UNSCALED_OFFSET = UNSCALED_LENGTH_OFFSET + 1;
+    static final int MAX_UNSCALED_BYTES = RECORD_SIZE - UNSCALED_OFFSET;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final int NO_SLOT = -1;
+    private static final int MAX_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    // Index layout: int hash, int slot reference (slot + 1, or one of the markers below)
+    private static final int INDEX_ENTRY_SIZE = 2 * Integer.BYTES;
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int initialCapacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer records;
+    private int recordCapacity;
+    private int nextUnusedSlot;
+    private int freeHead = NO_SLOT;
+
+    private ByteBuffer index;
+    private int indexCapacity;
+    private int indexUsed;
+    private boolean closed;
+
+    // Only written under the write lock, volatile so an empty store can be checked without locking
+    private volatile int size;
+
+    MappedAccountStore(Path directory, int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Initial capacity must be a positive number.");
+        }
+        this.initialCapacity = Math.min(initialCapacity, MAX_RECORDS);
+        try {
+            Files.createDirectories(directory);
+            this.file = Files.createTempFile(directory, "accounts-", ".cold");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapRecords(this.initialCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create cold account store in " + directory, e);
+        }
+        resetIndex();
+    }
+
+    /**
+     * Writes the account to the store, replacing any record with the same id.
+     *
+     * @return false if the account does not fit a record, or the store is full or closed; the caller
+     *         keeps it
+     */
+    boolean put(Account account) {
+        byte[] idBytes = account.getAccountId().getBytes(StandardCharsets.UTF_8);
+        BigDecimal balance = account.getBalance();
+        byte[] unscaled = balance.unscaledValue().toByteArray();
+        if (idBytes.length > MAX_ID_BYTES || unscaled.length > MAX_UNSCALED_BYTES) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            return write(account.getAccountId(), idBytes, balance.scale(), unscaled);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the account from the store.
+     *
+     * @return the removed account, or null if the store does not hold it
+     */
+    Account take(String accountId) {
+        if (size == 0) {
+            return null;
+        }
+        byte[] idBytes = accountId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(accountId);
+        if (!contains(idBytes, hash)) {
+            return null;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Look again, another thread may have taken it between the two locks
+            int entry = findEntry(idBytes, hash);
+            if (entry < 0) {
+                return null;
+            }
+            int slot = slotAt(entry);
+            Account account = readAccount(accountId, slot);
+
+            index.putInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES, TOMBSTONE);
+            freeSlot(slot);
+            size--;
+            return account;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(String accountId) {
+        return size != 0 && contains(accountId.getBytes(StandardCharsets.UTF_8), hash(accountId));
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            nextUnusedSlot = 0;
+            freeHead = NO_SLOT;
+            size = 0;
+            resetIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete cold account store " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean contains(byte[] idBytes, int hash) {
+        lock.readLock().lock();
+        try {
+            return findEntry(idBytes, hash) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean write(String accountId, byte[] idBytes, int scale, byte[] unscaled) {
+        int hash = hash(accountId);
+        int entry = findEntry(idBytes, hash);
+        int slot;
+        if (entry >= 0) {
+            slot = slotAt(entry);
+        } else {
+            slot = allocateSlot();
+            if (slot == NO_SLOT) {
+                return false;
+            }
+            insertEntry(hash, slot);
+            size++;
+        }
+
+        int offset = slot * RECORD_SIZE;
+        records.put(offset + STATE_OFFSET, USED);
+        records.put(offset + ID_LENGTH_OFFSET, (byte) idBytes.length);
+        for (int i = 0; i < idBytes.length; i++) {
+            records.put(offset + ID_OFFSET + i, idBytes[i]);
+        }
+        records.putInt(offset + SCALE_OFFSET, scale);
+        records.put(offset + UNSCALED_LENGTH_OFFSET, (byte) unscaled.length);
+        for (int i = 0; i < unscaled.length; i++) {
+            records.put(offset + UNSCALED_OFFSET + i, unscaled[i]);
+        }
+        return true;
+    }
+
+    private Account readAccount(String accountId, int slot) {
+        int offset = slot * RECORD_SIZE;
+        int scale = records.getInt(offset + SCALE_OFFSET);
+        byte[] unscaled = new byte[records.get(offset + UNSCALED_LENGTH_OFFSET)];
+        for (int i = 0; i < unscaled.length; i++) {
+            unscaled[i] = records.get(offset + UNSCALED_OFFSET + i);
+        }
+        return new Account(accountId, new BigDecimal(new BigInteger(unscaled), scale));
+    }
+
+    private boolean idMatches(int slot, byte[] idBytes) {
+        int offset = slot * RECORD_SIZE;
+        if (records.get(offset + ID_LENGTH_OFFSET) != idBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < idBytes.length; i++) {
+            if (records.get(offset + ID_OFFSET + i) != idBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int allocateSlot() {
+        if (freeHead != NO_SLOT) {
+            int slot = freeHead;
+            freeHead = records.getInt(slot * RECORD_SIZE + NEXT_FREE_OFFSET);
+            return slot;
+        }
+        if (nextUnusedSlot == recordCapacity) {
+            if (recordCapacity == MAX_RECORDS) {
+                return NO_SLOT;
+            }
+            growRecords();
+        }
+        return nextUnusedSlot++;
+    }
+
+    private void freeSlot(int slot) {
+        int offset = slot * RECORD_SIZE;
+        records.put(offset + STATE_OFFSET, FREE);
+        records.putInt(offset + NEXT_FREE_OFFSET, freeHead);
+        freeHead = slot;
+    }
+
+    private void growRecords() {
+        try {
+            mapRecords((int) Math.min((long) recordCapacity * 2, MAX_RECORDS));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow cold account store " + file, e);
+        }
+    }
+
+    private void mapRecords(int capacity) throws IOException {
+        // Mapping past the end of the file extends it
+        records = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        recordCapacity = capacity;
+    }
+
+    private int findEntry(byte[] idBytes, int hash) {
+        // Terminates because the index is never more than half full
+        int mask = indexCapacity - 1;
+        for (int entry = hash & mask; ; entry = (entry + 1) & mask) {
+            int slotRef = index.getInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES);
+            if (slotRef == EMPTY) {
+                return -1;
+            }
+            if (slotRef != TOMBSTONE && index.getInt(entry * INDEX_ENTRY_SIZE) == hash
+                    && idMatches(slotRef - 1, idBytes)) {
+                return entry;
+            }
+        }
+    }
+
+    private int slotAt(int entry) {
+        return index.getInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES) - 1;
+    }
+
+    private void insertEntry(int hash, int slot) {
+        if ((indexUsed + 1) * 2 > indexCapacity) {
+            // Double when live entries dominate, otherwise rebuilding just sweeps out tombstones
+            rehash((size + 1) * 4 > indexCapacity ? indexCapacity * 2 : indexCapacity);
+        }
+        if (placeEntry(index, indexCapacity, hash, slot + 1)) {
+            indexUsed++;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer newIndex = ByteBuffer.allocateDirect(newCapacity * INDEX_ENTRY_SIZE);
+        for (int entry = 0; entry < indexCapacity; entry++) {
+            int slotRef = index.getInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES);
+            if (slotRef != EMPTY && slotRef != TOMBSTONE) {
+                placeEntry(newIndex, newCapacity, index.getInt(entry * INDEX_ENTRY_SIZE), slotRef);
+            }
+        }
+        index = newIndex;
+        indexCapacity = newCapacity;
+        indexUsed = size;
+    }
+
+    /**
+     * @return true if an empty entry was consumed, false if a tombstone was reused
+     */
+    private static boolean placeEntry(ByteBuffer target, int capacity, int hash, int slotRef) {
+        int mask = capacity - 1;
+        for (int entry = hash & mask; ; entry = (entry + 1) & mask) {
+            int existing = target.getInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES);
+            if (existing == EMPTY || existing == TOMBSTONE) {
+                target.putInt(entry * INDEX_ENTRY_SIZE, hash);
+                target.putInt(entry * INDEX_ENTRY_SIZE + Integer.BYTES, slotRef);
+                return existing == EMPTY;
+            }
+        }
+    }
+
+    private void resetIndex() {
+        indexCapacity = Integer.highestOneBit(Math.max(initialCapacity, 8) - 1) << 2;
+        index = ByteBuffer.allocateDirect(indexCapacity * INDEX_ENTRY_SIZE);
+        indexUsed = 0;
+    }
+
+    private static int hash(String accountId) {
+        int h = accountId.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,157 @@
+package com.dws.challenge.repository;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.DuplicateAccountIdException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps recently used accounts on the heap and demotes accounts that have been idle for longer
+ * than {@code accounts.tiered.idle-millis} to a {@link MappedAccountStore}. Looking an account up
+ * promotes it back, so heap use follows the working set rather than the total number of accounts.
+ * <p>
+ * Enabled with {@code accounts.repository.type=tiered}.
+ */
+@Repository
+@ConditionalOnProperty(name = "accounts.repository.type", havingValue = "tiered")
+@Slf4j
+public class TieredAccountsRepository implements AccountsRepository {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Map<String, HotAccount> hotAccounts = new ConcurrentHashMap<>();
+    private final MappedAccountStore coldAccounts;
+    private final long idleNanos;
+    private final ScheduledExecutorService demotionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "account-demotion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public TieredAccountsRepository(@Value("${accounts.tiered.directory:${java.io.tmpdir}}") String directory,
+                                    @Value("${accounts.tiered.initial-capacity:1024}") int initialCapacity,
+                                    @Value("${accounts.tiered.idle-millis:300000}") long idleMillis,
+                                    @Value("${accounts.tiered.sweep-interval-millis:60000}") long sweepIntervalMillis) {
+        this.coldAccounts = new MappedAccountStore(Paths.get(directory), initialCapacity);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        if (sweepIntervalMillis > 0) {
+            demotionExecutor.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void createAccount(Account account) throws DuplicateAccountIdException {
+        hotAccounts.compute(account.getAccountId(), (accountId, existing) -> {
+            if (existing != null || coldAccounts.contains(accountId)) {
+                throw new DuplicateAccountIdException("Account id " + accountId + " already exists!");
+            }
+            return new HotAccount(account);
+        });
+    }
+
+    @Override
+    public Account getAccount(String accountId) {
+        HotAccount hot = hotAccounts.get(accountId);
+        if (hot == null) {
+            hot = hotAccounts.computeIfAbsent(accountId, this::promote);
+            if (hot == null) {
+                return null;
+            }
+        }
+        hot.lastAccessNanos = System.nanoTime();
+        return hot.account;
+    }
+
+    @Override
+    public void clearAccounts() {
+        hotAccounts.clear();
+        coldAccounts.clear();
+    }
+
+    /**
+     * Moves every account that has not been looked up within the idle period to the cold tier.
+     *
+     * @return the number of accounts demoted
+     */
+    public int demoteIdleAccounts() {
+        long now = System.nanoTime();
+        AtomicInteger demoted = new AtomicInteger();
+        for (String accountId : hotAccounts.keySet()) {
+            // See AccountsRepository: callers update accounts while holding this monitor, so an
+            // account is never copied to the cold tier halfway through a transfer
+            synchronized (accountId.intern()) {
+                hotAccounts.computeIfPresent(accountId, (id, hot) -> {
+                    if (now - hot.lastAccessNanos < idleNanos || !coldAccounts.put(hot.account)) {
+                        return hot;
+                    }
+                    demoted.incrementAndGet();
+                    return null;
+                });
+            }
+        }
+        return demoted.get();
+    }
+
+    public int getHotAccountCount() {
+        return hotAccounts.size();
+    }
+
+    public int getColdAccountCount() {
+        return coldAccounts.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        // Not shutdownNow: interrupting a sweep while it grows the file would close the channel
+        demotionExecutor.shutdown();
+        try {
+            if (!demotionExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Demotion sweep still running after {} seconds, closing the cold tier anyway",
+                        SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        coldAccounts.close();
+    }
+
+    private HotAccount promote(String accountId) {
+        Account account = coldAccounts.take(accountId);
+        return account == null ? null : new HotAccount(account);
+    }
+
+    private void sweep() {
+        try {
+            int demoted = demoteIdleAccounts();
+            log.debug("Demoted {} idle accounts, {} hot and {} cold", demoted, getHotAccountCount(),
+                    getColdAccountCount());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive, the next sweep retries
+            log.error("Failed to demote idle accounts", e);
+        }
+    }
+
+    private static final class HotAccount {
+
+        private final Account account;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private HotAccount(Account account) {
+            this.account = account;
+        }
+    }
+}
@@ -62,14 +62,6 @@ public class AccountsService {
 
     @Transactional
     public void performMoneyTransfer(String accountFromId, String accountToId, BigDecimal amount) {
-        Account accountFrom = accountsRepository.getAccount(accountFromId);
-        Account accountTo = accountsRepository.getAccount(accountToId);
-
-        // Check if accounts exist
-        if (accountFrom == null || accountTo == null) {
-            throw new IllegalArgumentException("One or both accounts do not exist.");
-        }
-
         // Determine a consistent order for locking accounts
         String firstAccountId = accountFromId.compareTo(accountToId) < 0 ? accountFromId : accountToId;
         String secondAccountId = accountFromId.compareTo(accountToId) < 0 ? accountToId : accountFromId;
@@ -78,6 +70,16 @@ public class AccountsService {
         synchronized (firstAccountId.intern()) {
             // Lock the second account
             synchronized (secondAccountId.intern()) {
+                // Look the accounts up under the locks, as AccountsRepository requires, so a tiered
+                // repository cannot demote them between the lookup and the balance update
+                Account accountFrom = accountsRepository.getAccount(accountFromId);
+                Account accountTo = accountsRepository.getAccount(accountToId);
+
+                // Check if accounts exist
+                if (accountFrom == null || accountTo == null) {
+                    throw new IllegalArgumentException("One or both accounts do not exist.");
+                }
+
                 // Check if the source account has sufficient funds
                 if (accountFrom.getBalance().compareTo(amount) < 0) {
                     throw new IllegalArgumentException("Insufficient funds in the source account.");
@@ -0,0 +1,27 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import com.dws.challenge.repository.AccountsRepository;
+import com.dws.challenge.repository.TieredAccountsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+@SpringBootTest(properties = "accounts.repository.type=tiered")
+class TieredAccountsRepositoryContextTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void tieredRepositoryIsTheOnlyAccountsRepository() {
+        Map<String, AccountsRepository> repositories = applicationContext.getBeansOfType(AccountsRepository.class);
+
+        assertThat(repositories).hasSize(1);
+        assertThat(repositories.values().iterator().next()).isInstanceOf(TieredAccountsRepository.class);
+    }
+}
@@ -0,0 +1,188 @@
+package com.dws.challenge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dws.challenge.domain.Account;
+import com.dws.challenge.exception.DuplicateAccountIdException;
+import com.dws.challenge.repository.TieredAccountsRepository;
+import com.dws.challenge.service.AccountsService;
+import com.dws.challenge.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TieredAccountsRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private TieredAccountsRepository accountsRepository;
+
+    private AccountsService accountsService;
+
+    @BeforeEach
+    void setUp() {
+        // Every account is idle straight away and sweeps only run when the test asks for them
+        accountsRepository = new TieredAccountsRepository(directory.toString(), 8, 0, 0);
+        accountsService = new AccountsService(accountsRepository, mock(NotificationService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountsRepository.close();
+    }
+
+    @Test
+    void demotedAccountIsPromotedOnGet() {
+        accountsRepository.createAccount(new Account("Id-1", new BigDecimal("123.45")));
+
+        assertThat(accountsRepository.demoteIdleAccounts()).isEqualTo(1);
+        assertThat(accountsRepository.getHotAccountCount()).isZero();
+        assertThat(accountsRepository.getColdAccountCount()).isEqualTo(1);
+
+        Account account = accountsRepository.getAccount("Id-1");
+        assertThat(account.getAccountId()).isEqualTo("Id-1");
+        assertThat(account.getBalance()).isEqualTo(new BigDecimal("123.45"));
+        assertThat(accountsRepository.getHotAccountCount()).isEqualTo(1);
+        assertThat(accountsRepository.getColdAccountCount()).isZero();
+    }
+
+    @Test
+    void balanceChangesSurviveDemotion() {
+        accountsRepository.createAccount(new Account("Id-1", new BigDecimal("1000")));
+        accountsRepository.getAccount("Id-1").setBalance(new BigDecimal("-0.01"));
+
+        accountsRepository.demoteIdleAccounts();
+
+        assertThat(accountsRepository.getAccount("Id-1").getBalance()).isEqualTo(new BigDecimal("-0.01"));
+    }
+
+    @Test
+    void createAccount_failsOnDuplicateColdId() {
+        accountsRepository.createAccount(new Account("Id-1"));
+        accountsRepository.demoteIdleAccounts();
+
+        assertThatThrownBy(() -> accountsRepository.createAccount(new Account("Id-1")))
+                .isInstanceOf(DuplicateAccountIdException.class)
+                .hasMessage("Account id Id-1 already exists!");
+    }
+
+    @Test
+    void coldStoreGrowsAndReusesRecords() {
+        for (int i = 0; i < 1000; i++) {
+            accountsRepository.createAccount(new Account("Id-" + i, BigDecimal.valueOf(i)));
+        }
+        assertThat(accountsRepository.demoteIdleAccounts()).isEqualTo(1000);
+
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(accountsRepository.getAccount("Id-" + i).getBalance()).isEqualTo(BigDecimal.valueOf(i));
+        }
+        assertThat(accountsRepository.demoteIdleAccounts()).isEqualTo(500);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(accountsRepository.getAccount("Id-" + i).getBalance()).isEqualTo(BigDecimal.valueOf(i));
+        }
+        assertThat(accountsRepository.getAccount("Id-1000")).isNull();
+        assertThat(accountsRepository.getColdAccountCount()).isZero();
+    }
+
+    @Test
+    void oversizedAccountStaysHot() {
+        String longId = "Id-" + "x".repeat(100);
+        accountsRepository.createAccount(new Account(longId, BigDecimal.TEN));
+
+        assertThat(accountsRepository.demoteIdleAccounts()).isZero();
+        assertThat(accountsRepository.getAccount(longId).getBalance()).isEqualTo(BigDecimal.TEN);
+    }
+
+    @Test
+    void clearAccountsEmptiesBothTiers() {
+        accountsRepository.createAccount(new Account("Id-1"));
+        accountsRepository.demoteIdleAccounts();
+        accountsRepository.createAccount(new Account("Id-2"));
+
+        accountsRepository.clearAccounts();
+
+        assertThat(accountsRepository.getAccount("Id-1")).isNull();
+        assertThat(accountsRepository.getAccount("Id-2")).isNull();
+    }
+
+    @Test
+    void transferPromotesDemotedAccounts() {
+        accountsRepository.createAccount(new Account("Id-1", new BigDecimal("1000")));
+        accountsRepository.createAccount(new Account("Id-2", new BigDecimal("500")));
+        assertThat(accountsRepository.demoteIdleAccounts()).isEqualTo(2);
+
+        accountsService.performMoneyTransfer("Id-1", "Id-2", new BigDecimal("300"));
+
+        assertThat(accountsRepository.getHotAccountCount()).isEqualTo(2);
+        assertThat(accountsRepository.getColdAccountCount()).isZero();
+        assertThat(accountsRepository.getAccount("Id-1").getBalance()).isEqualByComparingTo("700");
+        assertThat(accountsRepository.getAccount("Id-2").getBalance()).isEqualByComparingTo("800");
+    }
+
+    @Test
+    void transfersRacingDemotionKeepTotalBalance() throws Exception {
+        int accounts = 10;
+        for (int i = 0; i < accounts; i++) {
+            accountsRepository.createAccount(new Account("Id-" + i, new BigDecimal("1000")));
+        }
+
+        // A lost balance update would show up as money created or destroyed
+        AtomicBoolean transfersDone = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            Future<?> demoter = executor.submit(() -> {
+                while (!transfersDone.get()) {
+                    accountsRepository.demoteIdleAccounts();
+                }
+            });
+            List<Future<?>> transfers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                transfers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        int from = (i + offset) % accounts;
+                        accountsService.performMoneyTransfer("Id-" + from, "Id-" + (from + 1) % accounts,
+                                BigDecimal.ONE);
+                    }
+                }));
+            }
+            for (Future<?> transfer : transfers) {
+                transfer.get();
+            }
+            transfersDone.set(true);
+            demoter.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < accounts; i++) {
+            total = total.add(accountsRepository.getAccount("Id-" + i).getBalance());
+        }
+        assertThat(total).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    void demotionAfterCloseKeepsAccountsHot() {
+        accountsRepository.createAccount(new Account("Id-1", BigDecimal.TEN));
+
+        accountsRepository.close();
+
+        assertThat(accountsRepository.demoteIdleAccounts()).isZero();
+        assertThat(accountsRepository.getAccount("Id-1").getBalance()).isEqualTo(BigDecimal.TEN);
+    }
+}
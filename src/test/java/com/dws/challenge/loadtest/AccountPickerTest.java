@@ -0,0 +1,69 @@
+package com.dws.challenge.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class AccountPickerTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void zipfFavoursLowerRanksAndStaysInRange() {
+        int accounts = 100;
+        AccountPicker picker = AccountPicker.parse("zipf:1.1", accounts);
+
+        int[] counts = new int[accounts];
+        for (int i = 0; i < SAMPLES; i++) {
+            int account = picker.pick();
+            assertThat(account).isBetween(0, accounts - 1);
+            counts[account]++;
+        }
+
+        // Rank 0 has about twice the probability of rank 1, far beyond sampling noise
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[accounts - 1]);
+        for (int count : counts) {
+            assertThat(counts[0]).isGreaterThanOrEqualTo(count);
+        }
+    }
+
+    @Test
+    void zipfStaysInRangeForTwoAccounts() {
+        AccountPicker picker = AccountPicker.parse("zipf:0.5", 2);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            assertThat(picker.pick()).isBetween(0, 1);
+        }
+    }
+
+    @Test
+    void uniformStaysInRangeAndCoversEveryAccount() {
+        int accounts = 10;
+        AccountPicker picker = AccountPicker.parse("uniform", accounts);
+
+        boolean[] seen = new boolean[accounts];
+        for (int i = 0; i < SAMPLES; i++) {
+            int account = picker.pick();
+            assertThat(account).isBetween(0, accounts - 1);
+            seen[account] = true;
+        }
+
+        assertThat(seen).containsOnly(true);
+    }
+
+    @Test
+    void parseRejectsUnknownDistribution() {
+        assertThatThrownBy(() -> AccountPicker.parse("pareto", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown distribution pareto, expected uniform or zipf:<exponent>.");
+    }
+
+    @Test
+    void parseRejectsNonPositiveZipfExponent() {
+        assertThatThrownBy(() -> AccountPicker.parse("zipf:0", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Zipf exponent must be a positive number.");
+    }
+}
@@ -0,0 +1,104 @@
+package com.dws.challenge.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LoadTestOptionsTest {
+
+    @Test
+    void parseAppliesOptionsOverDefaults() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{
+                "--base-url=http://example:8080/", "--mode=closed", "--rate=250.5", "--accounts=20"});
+
+        assertThat(options.getBaseUrl()).isEqualTo("http://example:8080");
+        assertThat(options.getMode()).isEqualTo(LoadTestOptions.Mode.CLOSED);
+        assertThat(options.getRate()).isEqualTo(250.5);
+        assertThat(options.getAccounts()).isEqualTo(20);
+        assertThat(options.getDurationSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void parseRejectsArgumentWithoutDashes() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"rate=10"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected --name=value but got rate=10");
+    }
+
+    @Test
+    void parseRejectsArgumentWithoutValue() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--rate"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected --name=value but got --rate");
+    }
+
+    @Test
+    void parseRejectsUnknownOption() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--threads=4"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown option --threads");
+    }
+
+    @Test
+    void parseRejectsNonPositiveRate() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--rate=0"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parseRejectsNonFiniteRate() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--rate=NaN"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--rate=Infinity"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mixWeightsAreParsed() {
+        Map<Operation, Integer> weights = LoadTestOptions.parse(new String[]{"--mix= get=3, transfer=1,create=0"})
+                .getMixWeights();
+
+        assertThat(weights).containsEntry(Operation.GET, 3)
+                .containsEntry(Operation.TRANSFER, 1)
+                .containsEntry(Operation.CREATE, 0);
+    }
+
+    @Test
+    void mixRejectsNegativeWeight() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{"--mix=get=70,transfer=-1"});
+
+        assertThatThrownBy(options::getMixWeights)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Mix weights must not be negative.");
+    }
+
+    @Test
+    void mixRejectsAllZeroWeights() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{"--mix=get=0,transfer=0"});
+
+        assertThatThrownBy(options::getMixWeights)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one operation needs a positive weight.");
+    }
+
+    @Test
+    void mixRejectsUnknownOperation() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{"--mix=get=1,delete=1"});
+
+        assertThatThrownBy(options::getMixWeights)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown operation delete, expected create, get or transfer.");
+    }
+
+    @Test
+    void mixRejectsMissingWeight() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{"--mix=get"});
+
+        assertThatThrownBy(options::getMixWeights)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected operation=weight in mix but got get");
+    }
+}